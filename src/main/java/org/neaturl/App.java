@@ -2,12 +2,14 @@ package org.neaturl;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * This URL shortener service requires a PostgresQL database to run.
  * The DB schema is automatically created if it doesn't exist.
  */
 @SpringBootApplication
+@EnableScheduling
 public class App {
 
     static void main(String[] args) {
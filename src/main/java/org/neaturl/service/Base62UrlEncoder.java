@@ -2,6 +2,7 @@ package org.neaturl.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.neaturl.service.repository.base62.Base62Url;
+import org.neaturl.service.repository.base62.Base62UrlLookup;
 import org.neaturl.service.repository.base62.Base62UrlRepository;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
@@ -29,6 +30,7 @@ public class Base62UrlEncoder implements UrlEncoderStrategy {
     private static final Map<Character, Integer> alphabetIndexes = new HashMap<>();
 
     private final Base62UrlRepository urlRepository;
+    private final Base62UrlLookup urlLookup;
 
     static {
         for (int i = 0; i < ALPHABET.length(); i++) {
@@ -36,8 +38,9 @@ public class Base62UrlEncoder implements UrlEncoderStrategy {
         }
     }
 
-    public Base62UrlEncoder(Base62UrlRepository urlRepository) {
+    public Base62UrlEncoder(Base62UrlRepository urlRepository, Base62UrlLookup urlLookup) {
         this.urlRepository = urlRepository;
+        this.urlLookup = urlLookup;
     }
 
     /**
@@ -48,10 +51,10 @@ public class Base62UrlEncoder implements UrlEncoderStrategy {
     public String encode(String url) {
         // Check if the shortcut for the received URL already exists in the database.
         // Multiple same URLs must be resolved to the same shortcut.
-        var foundUrl = urlRepository.findByUrl(url);
-        if (foundUrl.isPresent()) {
+        var foundId = urlLookup.findIdByUrl(url);
+        if (foundId.isPresent()) {
             log.info("URL {} already encoded.", url);
-            return encodeNumber(foundUrl.get().getId());
+            return encodeNumber(foundId.get());
         }
 
         var savedUrl = urlRepository.save(new Base62Url(url));
@@ -97,9 +100,7 @@ public class Base62UrlEncoder implements UrlEncoderStrategy {
             number = number * BASE + index;
         }
 
-        return urlRepository
-                .findById(number)
-                .map(Base62Url::getUrl);
+        return urlLookup.findUrlById(number);
     }
 
     private static String encodeNumber(Long number) {
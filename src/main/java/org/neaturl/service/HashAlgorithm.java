@@ -0,0 +1,33 @@
+package org.neaturl.service;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.codec.digest.MurmurHash3;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Hash functions available to the {@link HashUrlEncoder}.
+ * MURMUR3 is a fast non-cryptographic hash and is the default. SHA256 is kept for deployments that
+ * require a cryptographic hash, at a higher CPU cost.
+ */
+public enum HashAlgorithm implements UrlHashFunction {
+
+    MURMUR3 {
+        @Override
+        public long hash(byte[] input, int seed) {
+            return MurmurHash3.hash128x64(input, 0, input.length, seed)[0];
+        }
+    },
+
+    SHA256 {
+        @Override
+        public long hash(byte[] input, int seed) {
+            var digest = DigestUtils.getSha256Digest();
+            digest.update(input);
+            if (seed != 0) {
+                digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(seed).array());
+            }
+            return ByteBuffer.wrap(digest.digest()).getLong();
+        }
+    }
+}
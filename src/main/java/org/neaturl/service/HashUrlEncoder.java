@@ -1,67 +1,147 @@
 package org.neaturl.service;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.codec.digest.DigestUtils;
 import org.neaturl.service.repository.hashedurl.HashedUrl;
+import org.neaturl.service.repository.hashedurl.HashedUrlLookup;
 import org.neaturl.service.repository.hashedurl.HashedUrlRepository;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Primary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
-import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Encoder implementation based on hashing algorithm.
- * Encoded URLs calculate a hash on the URL.
- * This solution may cause hash collisions. To compensate this issue, hashing is retried with a random
- * character until a maximum of retries.
+ * Encoded URLs calculate a hash on the URL and map its bits directly to base62 characters.
+ * This solution may cause hash collisions. To compensate this issue, hashing is retried with a different
+ * seed until a maximum of retries.
+ * The hash length grows when the ratio of stored URLs over the number of possible hashes crosses the
+ * configured maximum fill ratio, which keeps the collision rate low as the table grows.
+ * The number of stored URLs is read from the database in the background at startup and then periodically, so that
+ * URLs stored by other nodes are accounted for without slowing down encodings. In between, only the URLs encoded
+ * by this node are added to it.
  */
 @Service
 @Slf4j
 public class HashUrlEncoder implements UrlEncoderStrategy {
 
+    private static final int BASE = 62;
     private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-    public static final int MAX_HASH_LENGTH = 8;
+    public static final int MIN_HASH_LENGTH = 8;
+    // 62^10 is the largest power of 62 that fits in a long.
+    public static final int MAX_HASH_LENGTH = 10;
     public static final int MAX_HASH_RETRIES = 100;
+    public static final double MAX_FILL_RATIO = 0.01;
+    public static final long COUNT_REFRESH_PERIOD_MS = 600_000;
 
     private final HashedUrlRepository urlRepository;
-    private final Random random;
+    private final HashedUrlLookup urlLookup;
+    private final UrlHashFunction hashFunction;
+    private final int minHashLength;
+    private final double maxFillRatio;
+    // Refreshed from the database by refreshUrlCount().
+    private final AtomicLong urlCount = new AtomicLong();
 
-    @Autowired
-    public HashUrlEncoder(HashedUrlRepository urlRepository) {
-        this(urlRepository, new Random());
-    }
-
-    // Used for unit testing.
-    HashUrlEncoder(HashedUrlRepository urlRepository, Random random) {
+    public HashUrlEncoder(HashedUrlRepository urlRepository,
+                          HashedUrlLookup urlLookup,
+                          @Value("${neaturl.hash.algorithm:MURMUR3}") HashAlgorithm hashAlgorithm,
+                          @Value("${neaturl.hash.min-length:" + MIN_HASH_LENGTH + "}") int minHashLength,
+                          @Value("${neaturl.hash.max-fill-ratio:" + MAX_FILL_RATIO + "}") double maxFillRatio) {
+        if (minHashLength < 1 || minHashLength > MAX_HASH_LENGTH) {
+            throw new IllegalArgumentException("Hash length must be between 1 and " + MAX_HASH_LENGTH);
+        }
+        if (maxFillRatio <= 0 || maxFillRatio > 1) {
+            throw new IllegalArgumentException("Max fill ratio must be in ]0, 1]");
+        }
         this.urlRepository = urlRepository;
-        this.random = random;
+        this.urlLookup = urlLookup;
+        this.hashFunction = hashAlgorithm;
+        this.minHashLength = minHashLength;
+        this.maxFillRatio = maxFillRatio;
     }
 
     public String encode(String url) {
-        var hash = DigestUtils.sha256Hex(url).substring(0, MAX_HASH_LENGTH);
+        var input = url.getBytes(StandardCharsets.UTF_8);
+        var hashLength = hashLength();
 
-        int retries = 0;
-        var newHash = hash;
-        while (urlRepository.findById(newHash).isPresent() && retries++ < MAX_HASH_RETRIES) {
-            char randomChar = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
-            newHash = DigestUtils.sha256Hex(hash + randomChar).substring(0, MAX_HASH_LENGTH);
+        for (int seed = 0; seed <= MAX_HASH_RETRIES; seed++) {
+            var hash = toBase62(hashFunction.hash(input, seed), hashLength);
+            var storedUrl = urlLookup.findUrlById(hash);
+            if (storedUrl.isEmpty()) {
+                if (insert(hash, url)) {
+                    urlCount.incrementAndGet();
+                    log.debug("Encoded hashed URL: {}", hash);
+                    return hash;
+                }
+                // The hash was stored by a concurrent encoding in the meantime.
+                storedUrl = urlLookup.findUrlById(hash);
+            }
+            // Multiple same URLs must be resolved to the same hash.
+            if (storedUrl.filter(url::equals).isPresent()) {
+                log.info("URL {} already encoded.", url);
+                return hash;
+            }
         }
-        if (retries == MAX_HASH_RETRIES) {
-            throw new IllegalStateException("Unable to create a unique hash for URL " + url);
+        throw new IllegalStateException("Unable to create a unique hash for URL " + url);
+    }
+
+    private boolean insert(String hash, String url) {
+        try {
+            urlRepository.save(new HashedUrl(hash, url));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Hash {} already stored.", hash);
+            return false;
         }
-        hash = newHash;
+    }
+
+    public Optional<String> decode(String encodedUrl) {
+        return urlLookup.findUrlById(encodedUrl);
+    }
+
+    /**
+     * Read the number of stored URLs from the database. This runs a full count, so it is kept off the encoding path.
+     */
+    @Scheduled(fixedDelayString = "${neaturl.hash.count-refresh-period-ms:" + COUNT_REFRESH_PERIOD_MS + "}")
+    public void refreshUrlCount() {
+        urlCount.set(urlRepository.count());
+        log.debug("Stored hashed URLs: {}", urlCount.get());
+    }
 
-        urlRepository.save(new HashedUrl(hash, url));
-        log.debug("Encoded hashed URL: {}", hash);
+    /**
+     * Resolve the shortest hash length for which the fill ratio, including the URL to encode,
+     * stays under the configured maximum.
+     */
+    int hashLength() {
+        var count = urlCount.get() + 1;
 
-        return hash;
+        var length = minHashLength;
+        var capacity = pow62(length);
+        while (length < MAX_HASH_LENGTH && count > capacity * maxFillRatio) {
+            length++;
+            capacity *= BASE;
+        }
+        return length;
     }
 
-    public Optional<String> decode(String encodedUrl) {
-        return urlRepository
-                .findById(encodedUrl)
-                .map(HashedUrl::getUrl);
+    private static String toBase62(long hash, int length) {
+        var number = Long.remainderUnsigned(hash, pow62(length));
+        var result = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            result[i] = ALPHABET.charAt((int) (number % BASE));
+            number = number / BASE;
+        }
+        return new String(result);
+    }
+
+    private static long pow62(int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= BASE;
+        }
+        return result;
     }
 }
@@ -0,0 +1,11 @@
+package org.neaturl.service;
+
+/**
+ * Hash function used by the {@link HashUrlEncoder} to derive short codes from URLs.
+ * The seed allows computing a different hash for the same input when a collision has to be resolved.
+ */
+@FunctionalInterface
+public interface UrlHashFunction {
+
+    long hash(byte[] input, int seed);
+}
@@ -1,6 +1,7 @@
 package org.neaturl.service.repository;
 
 import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,13 +15,24 @@ import javax.sql.DataSource;
 @Configuration
 class DbConfig {
 
+    // Defaults target the local PostgreSQL database. They can be overridden, e.g. by the load test harness
+    // which runs against an embedded database.
+    @Value("${neaturl.datasource.driver-class-name:org.postgresql.Driver}")
+    private String driverClassName;
+    @Value("${neaturl.datasource.url:jdbc:postgresql://localhost:5432/NeatUrl}")
+    private String url;
+    @Value("${neaturl.datasource.username:postgres}")
+    private String username;
+    @Value("${neaturl.datasource.password:!s2b3ll3}")
+    private String password;
+
     @Bean
     public DataSource dataSource() {
         return DataSourceBuilder.create()
-                .driverClassName("org.postgresql.Driver")
-                .url("jdbc:postgresql://localhost:5432/NeatUrl")
-                .username("postgres")
-                .password("!s2b3ll3")
+                .driverClassName(driverClassName)
+                .url(url)
+                .username(username)
+                .password(password)
                 .build();
     }
 
@@ -0,0 +1,35 @@
+package org.neaturl.service.repository.base62;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Read-only JDBC lookups on the base62 URLs.
+ */
+@Repository
+public class Base62UrlLookup {
+
+    private static final String FIND_URL_BY_ID = "SELECT url FROM url WHERE id = ?";
+    // The same URL may have been stored more than once by concurrent encodings, the first one is kept.
+    private static final String FIND_ID_BY_URL = "SELECT id FROM url WHERE url = ? ORDER BY id LIMIT 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Base62UrlLookup(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<String> findUrlById(long id) {
+        return jdbcTemplate.query(FIND_URL_BY_ID,
+                rs -> rs.next() ? Optional.of(rs.getString(1)) : Optional.empty(),
+                id);
+    }
+
+    public Optional<Long> findIdByUrl(String url) {
+        return jdbcTemplate.query(FIND_ID_BY_URL,
+                rs -> rs.next() ? Optional.of(rs.getLong(1)) : Optional.empty(),
+                url);
+    }
+}
@@ -3,12 +3,13 @@ package org.neaturl.service.repository.hashedurl;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
 
 @Entity
 @Table(name = "urlhashkey")
 @Data
 @NoArgsConstructor
-public class HashedUrl {
+public class HashedUrl implements Persistable<String> {
 
     @Id
     private String id;
@@ -22,4 +23,12 @@ public class HashedUrl {
         this.id = hash;
         this.url = url;
     }
+
+    // Hashed URLs are never updated: saving always inserts, without loading an existing row to merge with.
+    // Inserting an existing hash fails with a DataIntegrityViolationException.
+    @Override
+    @Transient
+    public boolean isNew() {
+        return true;
+    }
 }
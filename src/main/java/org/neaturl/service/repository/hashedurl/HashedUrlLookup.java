@@ -0,0 +1,27 @@
+package org.neaturl.service.repository.hashedurl;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Read-only JDBC lookups on the hashed URLs.
+ */
+@Repository
+public class HashedUrlLookup {
+
+    private static final String FIND_URL_BY_ID = "SELECT url FROM urlhashkey WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public HashedUrlLookup(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<String> findUrlById(String id) {
+        return jdbcTemplate.query(FIND_URL_BY_ID,
+                rs -> rs.next() ? Optional.of(rs.getString(1)) : Optional.empty(),
+                id);
+    }
+}
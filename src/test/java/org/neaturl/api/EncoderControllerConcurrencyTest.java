@@ -0,0 +1,57 @@
+package org.neaturl.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs concurrent encodes through the HTTP layer against an embedded database, with the same connection
+ * handling as in production.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "neaturl.datasource.driver-class-name=org.h2.Driver",
+        "neaturl.datasource.url=jdbc:h2:mem:concurrency;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "neaturl.datasource.username=sa",
+        "neaturl.datasource.password=",
+        "logging.level.org.neaturl=INFO"
+})
+class EncoderControllerConcurrencyTest {
+
+    // Well above the default connection pool size of 10.
+    private static final int CONCURRENT_ENCODES = 64;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void encode_shouldNotExhaustConnectionPoolUnderConcurrency() throws Exception {
+        var tasks = new ArrayList<Callable<String>>();
+        for (int i = 0; i < CONCURRENT_ENCODES; i++) {
+            var url = "https://concurrency.test/" + i;
+            tasks.add(() -> {
+                var response = restTemplate.getForEntity("/api/encode?url={url}", String.class, url);
+                assertEquals(HttpStatus.OK, response.getStatusCode(), response.getBody());
+                return response.getBody();
+            });
+        }
+
+        var codes = new HashSet<String>();
+        try (var executor = Executors.newFixedThreadPool(CONCURRENT_ENCODES)) {
+            for (Future<String> result : executor.invokeAll(tasks)) {
+                codes.add(result.get());
+            }
+        }
+
+        assertEquals(CONCURRENT_ENCODES, codes.size());
+    }
+}
@@ -0,0 +1,143 @@
+package org.neaturl.loadtest;
+
+import org.neaturl.App;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLClassLoader;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the application against an embedded database, either in the current JVM or in a separate process so that
+ * it does not share CPU, GC and heap with the load generator.
+ */
+class EmbeddedApp implements AutoCloseable {
+
+    private static final String EMBEDDED_DB_URL = "jdbc:h2:mem:neaturl;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private final Process process;
+    private final int port;
+
+    private EmbeddedApp(Process process, int port) {
+        this.process = process;
+        this.port = port;
+    }
+
+    public static void main(String[] args) {
+        start(Integer.parseInt(args[0]));
+    }
+
+    static ConfigurableApplicationContext start(int port) {
+        // Passed as command line arguments so that they take precedence over application.yml.
+        return new SpringApplicationBuilder(App.class).run(
+                "--server.port=" + port,
+                "--neaturl.datasource.driver-class-name=org.h2.Driver",
+                "--neaturl.datasource.url=" + EMBEDDED_DB_URL,
+                "--neaturl.datasource.username=sa",
+                "--neaturl.datasource.password=",
+                // Per request debug logs would dominate the measured latencies.
+                "--logging.level.org.neaturl=INFO");
+    }
+
+    /**
+     * Start the application in a new JVM and wait until it serves requests.
+     *
+     * @param jvmArgs Options of the application JVM, e.g. its heap size.
+     * @param logFile File receiving the application output.
+     */
+    static EmbeddedApp fork(String jvmArgs, Path logFile) throws IOException, InterruptedException {
+        var port = freePort();
+        var command = new ArrayList<String>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (!jvmArgs.isBlank()) {
+            command.addAll(List.of(jvmArgs.trim().split("\\s+")));
+        }
+        command.addAll(List.of("-cp", classpath(), EmbeddedApp.class.getName(), String.valueOf(port)));
+
+        Files.createDirectories(logFile.toAbsolutePath().getParent());
+        var process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+        var app = new EmbeddedApp(process, port);
+        try {
+            app.awaitStartup(logFile);
+        } catch (InterruptedException | RuntimeException e) {
+            app.close();
+            throw e;
+        }
+        return app;
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+
+    private void awaitStartup(Path logFile) throws InterruptedException {
+        var request = HttpRequest.newBuilder(URI.create(baseUrl() + "/api/decode?url=a")).GET().build();
+        var deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        try (var client = HttpClient.newHttpClient()) {
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited, see " + logFile.toAbsolutePath());
+                }
+                try {
+                    client.send(request, HttpResponse.BodyHandlers.discarding());
+                    return;
+                } catch (IOException e) {
+                    // Not listening yet.
+                    TimeUnit.MILLISECONDS.sleep(200);
+                }
+            }
+        }
+        throw new IllegalStateException("Application not started after " + STARTUP_TIMEOUT.toSeconds()
+                + "s, see " + logFile.toAbsolutePath());
+    }
+
+    private static int freePort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Resolve the classpath of this class. When run through exec:java, it is only known by the class loader.
+     */
+    private static String classpath() {
+        if (EmbeddedApp.class.getClassLoader() instanceof URLClassLoader loader) {
+            var entries = new ArrayList<String>();
+            for (var url : loader.getURLs()) {
+                try {
+                    entries.add(Path.of(url.toURI()).toString());
+                } catch (URISyntaxException e) {
+                    throw new UncheckedIOException(new IOException("Invalid classpath entry " + url, e));
+                }
+            }
+            return String.join(File.pathSeparator, entries);
+        }
+        return System.getProperty("java.class.path");
+    }
+}
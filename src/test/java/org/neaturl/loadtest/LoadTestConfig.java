@@ -0,0 +1,64 @@
+package org.neaturl.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Load test parameters, read from system properties so they can be passed on the Maven command line.
+ *
+ * @param target       Base URL of the service under test. When blank, the application is started against an
+ *                     embedded database.
+ * @param inProcess    Start the application in the load generator JVM rather than in a separate process.
+ *                     The results are then skewed by the load generator and are not capacity figures.
+ * @param appJvmArgs   Options of the application JVM when started in a separate process.
+ * @param rate         Constant arrival rate, in requests per second.
+ * @param warmup       Duration of the warm-up phase, which is not reported.
+ * @param duration     Duration of the measured phase.
+ * @param encodeRatio  Ratio of encode requests, the other requests are decodes.
+ * @param keyspace     Number of URLs encoded before the test and available to decode requests.
+ * @param zipfExponent Skew of the encoded URLs popularity. 0 is uniform.
+ * @param seed         Seed of the workload, so that runs can be reproduced.
+ * @param threads      Number of threads handling the HTTP responses.
+ * @param reportDir    Directory where the HdrHistogram percentile distributions are written.
+ */
+record LoadTestConfig(String target,
+                      boolean inProcess,
+                      String appJvmArgs,
+                      int rate,
+                      Duration warmup,
+                      Duration duration,
+                      double encodeRatio,
+                      int keyspace,
+                      double zipfExponent,
+                      long seed,
+                      int threads,
+                      Path reportDir) {
+
+    LoadTestConfig {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Rate must be positive: " + rate);
+        }
+        if (encodeRatio < 0 || encodeRatio > 1) {
+            throw new IllegalArgumentException("Encode ratio must be in [0, 1]: " + encodeRatio);
+        }
+        if (keyspace <= 0 && encodeRatio < 1) {
+            throw new IllegalArgumentException("Keyspace must be positive when decoding: " + keyspace);
+        }
+    }
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                System.getProperty("loadtest.target", ""),
+                Boolean.getBoolean("loadtest.in-process"),
+                System.getProperty("loadtest.app-jvm-args", ""),
+                Integer.getInteger("loadtest.rate", 200),
+                Duration.ofSeconds(Long.getLong("loadtest.warmup", 10L)),
+                Duration.ofSeconds(Long.getLong("loadtest.duration", 60L)),
+                Double.parseDouble(System.getProperty("loadtest.encode-ratio", "0.1")),
+                Integer.getInteger("loadtest.keyspace", 10_000),
+                Double.parseDouble(System.getProperty("loadtest.zipf-exponent", "0.99")),
+                Long.getLong("loadtest.seed", 42L),
+                Integer.getInteger("loadtest.threads", 16),
+                Path.of(System.getProperty("loadtest.report-dir", "target/loadtest")));
+    }
+}
@@ -0,0 +1,293 @@
+package org.neaturl.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator driving the encode and decode HTTP endpoints.
+ * Requests are issued at a constant arrival rate, whatever the response times of the service, and the response
+ * time of each request is measured from the time it was scheduled to be sent. A slow service therefore cannot
+ * hold back the requests that would have been sent meanwhile, which corrects the coordinated omission that
+ * closed-model load generators suffer from.
+ * Failed requests, including decodes of unknown codes, are recorded in their own histograms so that they neither
+ * hide in nor skew the latencies of the successful requests.
+ * Unless a target is passed, the application runs in a separate JVM against an embedded database.
+ * Run with: mvn -Ploadtest test-compile exec:java -Dloadtest.rate=500 -Dloadtest.duration=60
+ * See {@link LoadTestConfig} for all parameters.
+ */
+public class LoadTestRunner {
+
+    // Track response times up to 1 minute, in microseconds, with 3 significant digits.
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final int SEED_CONCURRENCY = 64;
+    // Body returned with a 200 status by the decode endpoint when the code is unknown.
+    private static final String INVALID_DECODE_BODY = "Invalid encoded URL.";
+
+    private final LoadTestConfig config;
+    private final String baseUrl;
+    private final HttpClient client;
+    private final ExecutorService executor;
+    private final Random random;
+    private final List<String> encodedUrls = new ArrayList<>();
+    private final AtomicLong urlSequence = new AtomicLong();
+    private ZipfianGenerator popularity;
+
+    LoadTestRunner(LoadTestConfig config, String baseUrl) {
+        this.config = config;
+        this.baseUrl = baseUrl;
+        this.executor = Executors.newFixedThreadPool(config.threads());
+        this.client = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.random = new Random(config.seed());
+    }
+
+    public static void main(String[] args) throws Exception {
+        var config = LoadTestConfig.fromSystemProperties();
+        ConfigurableApplicationContext inProcessApp = null;
+        EmbeddedApp forkedApp = null;
+        var baseUrl = config.target();
+        if (baseUrl.isBlank() && config.inProcess()) {
+            inProcessApp = EmbeddedApp.start(0);
+            baseUrl = "http://localhost:" + inProcessApp.getEnvironment().getProperty("local.server.port");
+        } else if (baseUrl.isBlank()) {
+            var logFile = config.reportDir().resolve("app.log");
+            System.out.printf("Starting the application, logs in %s%n", logFile.toAbsolutePath());
+            forkedApp = EmbeddedApp.fork(config.appJvmArgs(), logFile);
+            baseUrl = forkedApp.baseUrl();
+        }
+
+        var runner = new LoadTestRunner(config, baseUrl);
+        try {
+            System.out.printf("Seeding %d URLs on %s%n", config.keyspace(), baseUrl);
+            runner.seed();
+            System.out.printf("Warming up for %ds at %d req/s%n", config.warmup().toSeconds(), config.rate());
+            runner.run(config.warmup());
+            System.out.printf("Measuring for %ds at %d req/s%n", config.duration().toSeconds(), config.rate());
+            var report = runner.run(config.duration());
+            report.print(System.out);
+            report.write(config);
+            if (inProcessApp != null) {
+                System.out.println("WARNING: the application ran in the load generator JVM, sharing its CPU, GC "
+                        + "and heap. These results are not capacity figures.");
+            }
+        } finally {
+            runner.executor.shutdownNow();
+            if (inProcessApp != null) {
+                inProcessApp.close();
+            }
+            if (forkedApp != null) {
+                forkedApp.close();
+            }
+        }
+    }
+
+    /**
+     * Encode the URLs that decode requests pick from.
+     */
+    void seed() {
+        var pending = new ArrayList<CompletableFuture<String>>();
+        for (int i = 0; i < config.keyspace(); i++) {
+            pending.add(client.sendAsync(encodeRequest(), HttpResponse.BodyHandlers.ofString())
+                    .thenApply(LoadTestRunner::checkedBody));
+            if (pending.size() == SEED_CONCURRENCY || i == config.keyspace() - 1) {
+                pending.forEach(future -> encodedUrls.add(future.join()));
+                pending.clear();
+            }
+        }
+        if (!encodedUrls.isEmpty()) {
+            popularity = new ZipfianGenerator(encodedUrls.size(), config.zipfExponent(), random);
+        }
+    }
+
+    /**
+     * Send requests at the configured constant rate for the passed in duration and wait for all the responses.
+     */
+    Report run(Duration duration) throws InterruptedException {
+        var report = new Report();
+        var inFlight = new AtomicInteger();
+        var intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.rate();
+        var start = System.nanoTime();
+        var end = start + duration.toNanos();
+
+        for (long i = 0; ; i++) {
+            var intendedStart = start + i * intervalNanos;
+            if (intendedStart >= end) {
+                break;
+            }
+            long now;
+            while ((now = System.nanoTime()) < intendedStart) {
+                LockSupport.parkNanos(intendedStart - now);
+            }
+
+            var operation = random.nextDouble() < config.encodeRatio() ? Operation.ENCODE : Operation.DECODE;
+            var request = operation == Operation.ENCODE ? encodeRequest() : decodeRequest();
+            var actualStart = System.nanoTime();
+            inFlight.incrementAndGet();
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> {
+                        var completion = System.nanoTime();
+                        if (isSuccess(operation, response, error)) {
+                            report.record(operation, intendedStart, actualStart, completion);
+                        } else {
+                            report.recordFailure(operation, intendedStart, completion);
+                        }
+                        inFlight.decrementAndGet();
+                    });
+        }
+        // The throughput is measured over the send schedule, not including the wait for the last responses.
+        report.elapsedNanos = System.nanoTime() - start;
+
+        while (inFlight.get() > 0) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        return report;
+    }
+
+    private HttpRequest encodeRequest() {
+        var url = "https://loadtest.neaturl.org/" + config.seed() + "/" + urlSequence.incrementAndGet();
+        return get("/api/encode?url=" + URLEncoder.encode(url, StandardCharsets.UTF_8));
+    }
+
+    private HttpRequest decodeRequest() {
+        return get("/api/decode?url=" + encodedUrls.get(popularity.next()));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofMinutes(1))
+                .GET()
+                .build();
+    }
+
+    private static boolean isSuccess(Operation operation, HttpResponse<String> response, Throwable error) {
+        if (error != null || response.statusCode() != 200) {
+            return false;
+        }
+        return operation != Operation.DECODE || !INVALID_DECODE_BODY.equals(response.body());
+    }
+
+    private static String checkedBody(HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unable to seed URL, status " + response.statusCode()
+                    + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    enum Operation {
+        ENCODE, DECODE
+    }
+
+    /**
+     * Latency histograms of a run, per operation.
+     * The response time is measured from the intended start time and is corrected for coordinated omission.
+     * The service time is measured from the actual send time and only shows the time spent in the service.
+     * Failed requests are recorded apart, with their response time.
+     */
+    static class Report {
+
+        private final Histogram[] responseTimes = new Histogram[Operation.values().length];
+        private final Histogram[] serviceTimes = new Histogram[Operation.values().length];
+        private final Histogram[] failureResponseTimes = new Histogram[Operation.values().length];
+        private long elapsedNanos;
+
+        Report() {
+            for (int i = 0; i < Operation.values().length; i++) {
+                responseTimes[i] = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+                serviceTimes[i] = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+                failureResponseTimes[i] = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+            }
+        }
+
+        void record(Operation operation, long intendedStart, long actualStart, long end) {
+            var index = operation.ordinal();
+            responseTimes[index].recordValue(toMicros(end - intendedStart));
+            serviceTimes[index].recordValue(toMicros(end - actualStart));
+        }
+
+        void recordFailure(Operation operation, long intendedStart, long end) {
+            failureResponseTimes[operation.ordinal()].recordValue(toMicros(end - intendedStart));
+        }
+
+        void print(PrintStream out) {
+            var seconds = elapsedNanos / 1e9;
+            for (var operation : Operation.values()) {
+                var index = operation.ordinal();
+                var successes = responseTimes[index].getTotalCount();
+                var failures = failureResponseTimes[index].getTotalCount();
+                out.printf(Locale.ROOT, "%n%s: %d requests, %d errors, %.1f successful req/s%n",
+                        operation, successes + failures, failures, successes / seconds);
+                out.println("                 p50       p90       p99     p99.9    p99.99       max (ms)");
+                printPercentiles(out, "response time", responseTimes[index]);
+                printPercentiles(out, "service time ", serviceTimes[index]);
+                if (failures > 0) {
+                    printPercentiles(out, "failures     ", failureResponseTimes[index]);
+                }
+            }
+        }
+
+        void write(LoadTestConfig config) throws IOException {
+            Files.createDirectories(config.reportDir());
+            for (var operation : Operation.values()) {
+                var index = operation.ordinal();
+                var name = operation.name().toLowerCase(Locale.ROOT);
+                writeDistribution(config, name + "-response-time.hgrm", responseTimes[index]);
+                writeDistribution(config, name + "-service-time.hgrm", serviceTimes[index]);
+                writeDistribution(config, name + "-failure-response-time.hgrm", failureResponseTimes[index]);
+            }
+            System.out.printf("%nPercentile distributions written to %s%n", config.reportDir().toAbsolutePath());
+        }
+
+        private static void printPercentiles(PrintStream out, String label, Histogram histogram) {
+            out.printf(Locale.ROOT, "%s %9.3f %9.3f %9.3f %9.3f %9.3f %9.3f%n", label,
+                    toMillis(histogram.getValueAtPercentile(50)),
+                    toMillis(histogram.getValueAtPercentile(90)),
+                    toMillis(histogram.getValueAtPercentile(99)),
+                    toMillis(histogram.getValueAtPercentile(99.9)),
+                    toMillis(histogram.getValueAtPercentile(99.99)),
+                    toMillis(histogram.getMaxValue()));
+        }
+
+        private static void writeDistribution(LoadTestConfig config, String fileName, Histogram histogram)
+                throws IOException {
+            try (var out = new PrintStream(Files.newOutputStream(config.reportDir().resolve(fileName)))) {
+                // Values are recorded in microseconds and reported in milliseconds.
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+
+        private static long toMicros(long nanos) {
+            return Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS);
+        }
+
+        private static double toMillis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.neaturl.loadtest;
+
+import org.neaturl.service.repository.base62.Base62Url;
+import org.neaturl.service.repository.base62.Base62UrlLookup;
+import org.neaturl.service.repository.base62.Base62UrlRepository;
+import org.neaturl.service.repository.hashedurl.HashedUrl;
+import org.neaturl.service.repository.hashedurl.HashedUrlLookup;
+import org.neaturl.service.repository.hashedurl.HashedUrlRepository;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * Compares the per lookup CPU time and allocations of the JPA repositories with the JDBC lookups used on the
+ * decode and encode paths.
+ * Lookups run in-process against the embedded database so that the measures are dominated by the data access
+ * code rather than by the database itself. Each lookup is measured on the calling thread only.
+ * Run with: mvn -Ploadtest test-compile exec:java@lookup-benchmark -Dbenchmark.iterations=50000
+ */
+public class LookupBenchmark {
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final int keyspace = Integer.getInteger("benchmark.keyspace", 1_000);
+    private final int warmup = Integer.getInteger("benchmark.warmup", 20_000);
+    private final int iterations = Integer.getInteger("benchmark.iterations", 50_000);
+    private final Random random = new Random(Long.getLong("benchmark.seed", 42L));
+
+    public static void main(String[] args) {
+        try (var app = EmbeddedApp.start(0)) {
+            new LookupBenchmark().run(
+                    app.getBean(Base62UrlRepository.class),
+                    app.getBean(Base62UrlLookup.class),
+                    app.getBean(HashedUrlRepository.class),
+                    app.getBean(HashedUrlLookup.class));
+        }
+    }
+
+    private void run(Base62UrlRepository base62Repository, Base62UrlLookup base62Lookup,
+                     HashedUrlRepository hashedRepository, HashedUrlLookup hashedLookup) {
+        var ids = new ArrayList<Long>();
+        var urls = new ArrayList<String>();
+        var hashes = new ArrayList<String>();
+        for (int i = 0; i < keyspace; i++) {
+            var url = "https://benchmark.neaturl.org/" + i;
+            urls.add(url);
+            ids.add(base62Repository.save(new Base62Url(url)).getId());
+            var hash = "bench" + i;
+            hashes.add(hash);
+            hashedRepository.save(new HashedUrl(hash, url));
+        }
+
+        System.out.printf("%nLookups over %d URLs, %d iterations after %d warm-up iterations%n",
+                keyspace, iterations, warmup);
+        System.out.println("                                   CPU (us/op)   alloc (bytes/op)");
+        measure("base62 decode     JPA  findById", i ->
+                base62Repository.findById(pick(ids)).map(Base62Url::getUrl));
+        measure("base62 decode     JDBC findUrlById", i ->
+                base62Lookup.findUrlById(pick(ids)));
+        measure("base62 dedup      JPA  findByUrl", i ->
+                base62Repository.findByUrl(pick(urls)).map(Base62Url::getId));
+        measure("base62 dedup      JDBC findIdByUrl", i ->
+                base62Lookup.findIdByUrl(pick(urls)));
+        measure("hashed decode     JPA  findById", i ->
+                hashedRepository.findById(pick(hashes)).map(HashedUrl::getUrl));
+        measure("hashed decode     JDBC findUrlById", i ->
+                hashedLookup.findUrlById(pick(hashes)));
+    }
+
+    private void measure(String name, IntFunction<Optional<?>> lookup) {
+        for (int i = 0; i < warmup; i++) {
+            check(lookup.apply(i));
+        }
+
+        var threadId = Thread.currentThread().threadId();
+        var cpuStart = THREAD_MX_BEAN.getCurrentThreadCpuTime();
+        var allocatedStart = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            check(lookup.apply(i));
+        }
+        var cpuNanos = THREAD_MX_BEAN.getCurrentThreadCpuTime() - cpuStart;
+        var allocatedBytes = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - allocatedStart;
+
+        System.out.printf(Locale.ROOT, "%-34s %11.2f %18d%n",
+                name, cpuNanos / 1000.0 / iterations, allocatedBytes / iterations);
+    }
+
+    private <T> T pick(List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static void check(Optional<?> result) {
+        if (result.isEmpty()) {
+            throw new IllegalStateException("Seeded URL not found");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.neaturl.loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates ranks in [0, n[ following a Zipf distribution: rank k is drawn with a probability
+ * proportional to 1 / (k + 1)^exponent. Rank 0 is the most popular.
+ */
+class ZipfianGenerator {
+
+    private final double[] cumulativeProbabilities;
+    private final Random random;
+
+    ZipfianGenerator(int n, double exponent, Random random) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Number of ranks must be positive: " + n);
+        }
+        if (exponent < 0) {
+            throw new IllegalArgumentException("Exponent must not be negative: " + exponent);
+        }
+        this.random = random;
+        this.cumulativeProbabilities = new double[n];
+
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, exponent);
+            cumulativeProbabilities[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulativeProbabilities[k] /= sum;
+        }
+    }
+
+    int next() {
+        var index = Arrays.binarySearch(cumulativeProbabilities, random.nextDouble());
+        // When not found, binarySearch returns (-(insertion point) - 1).
+        var rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cumulativeProbabilities.length - 1);
+    }
+}
@@ -0,0 +1,64 @@
+package org.neaturl.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZipfianGeneratorTest {
+
+    private static final int SAMPLES = 100_000;
+
+    @Test
+    void next_shouldStayInRange() {
+        var generator = new ZipfianGenerator(10, 0.99, new Random(42));
+
+        for (int i = 0; i < SAMPLES; i++) {
+            var rank = generator.next();
+            assertTrue(rank >= 0 && rank < 10, "Rank out of range: " + rank);
+        }
+    }
+
+    @Test
+    void next_shouldFavorLowRanks() {
+        var generator = new ZipfianGenerator(1000, 1.0, new Random(42));
+        var counts = new int[1000];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[generator.next()]++;
+        }
+
+        // With an exponent of 1, rank 0 is drawn twice as often as rank 1.
+        assertEquals(2.0, (double) counts[0] / counts[1], 0.2);
+        assertTrue(counts[0] > counts[999] * 100);
+    }
+
+    @Test
+    void next_shouldBeUniformWithZeroExponent() {
+        var generator = new ZipfianGenerator(4, 0, new Random(42));
+        var counts = new int[4];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[generator.next()]++;
+        }
+
+        for (int count : counts) {
+            assertEquals(SAMPLES / 4.0, count, SAMPLES * 0.01);
+        }
+    }
+
+    @Test
+    void next_shouldBeReproducibleWithSameSeed() {
+        var first = new ZipfianGenerator(100, 0.99, new Random(7));
+        var second = new ZipfianGenerator(100, 0.99, new Random(7));
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(first.next(), second.next());
+        }
+    }
+
+    @Test
+    void constructor_shouldRejectInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ZipfianGenerator(0, 1, new Random()));
+        assertThrows(IllegalArgumentException.class, () -> new ZipfianGenerator(10, -1, new Random()));
+    }
+}
@@ -7,6 +7,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.neaturl.service.repository.base62.Base62Url;
+import org.neaturl.service.repository.base62.Base62UrlLookup;
 import org.neaturl.service.repository.base62.Base62UrlRepository;
 
 import java.util.Optional;
@@ -23,11 +24,13 @@ class Base62UrlEncoderTest {
 
     @Mock
     private Base62UrlRepository repo;
+    @Mock
+    private Base62UrlLookup lookup;
     private Base62UrlEncoder encoder;
 
     @BeforeEach
     void setup() {
-        encoder = new Base62UrlEncoder(repo);
+        encoder = new Base62UrlEncoder(repo, lookup);
     }
 
     // ------------------------------------------------------
@@ -39,7 +42,7 @@ class Base62UrlEncoderTest {
         var entity = new Base62Url(URL_TO_ENCODE);
         entity.setId(0L);
 
-        when(repo.findByUrl(URL_TO_ENCODE)).thenReturn(Optional.empty());
+        when(lookup.findIdByUrl(URL_TO_ENCODE)).thenReturn(Optional.empty());
         when(repo.save(any())).thenReturn(entity);
 
         var result = encoder.encode(URL_TO_ENCODE);
@@ -53,9 +56,9 @@ class Base62UrlEncoderTest {
         var entity = new Base62Url(URL_TO_ENCODE);
         entity.setId(URL_ID);
 
-        when(repo.findByUrl(URL_TO_ENCODE)).thenReturn(Optional.empty());
+        when(lookup.findIdByUrl(URL_TO_ENCODE)).thenReturn(Optional.empty());
         when(repo.save(any())).thenReturn(entity);
-        when(repo.findById(URL_ID)).thenReturn(Optional.of(entity));
+        when(lookup.findUrlById(URL_ID)).thenReturn(Optional.of(entity.getUrl()));
 
         var result = encoder.encode(URL_TO_ENCODE);
 
@@ -67,9 +70,9 @@ class Base62UrlEncoderTest {
         var entity = new Base62Url(URL_TO_ENCODE);
         entity.setId(URL_ID);
 
-        when(repo.findByUrl(URL_TO_ENCODE)).thenReturn(Optional.empty());
+        when(lookup.findIdByUrl(URL_TO_ENCODE)).thenReturn(Optional.empty());
         when(repo.save(any())).thenReturn(entity);
-        when(repo.findById(URL_ID)).thenReturn(Optional.of(entity));
+        when(lookup.findUrlById(URL_ID)).thenReturn(Optional.of(entity.getUrl()));
 
         encoder.encode(URL_TO_ENCODE);
 
@@ -83,11 +86,11 @@ class Base62UrlEncoderTest {
         var entity = new Base62Url(URL_TO_ENCODE);
         entity.setId(URL_ID);
 
-        when(repo.findByUrl(URL_TO_ENCODE))
+        when(lookup.findIdByUrl(URL_TO_ENCODE))
                 .thenReturn(Optional.empty())
-                .thenReturn(Optional.of(entity));
+                .thenReturn(Optional.of(URL_ID));
         when(repo.save(any())).thenReturn(entity);
-        when(repo.findById(URL_ID)).thenReturn(Optional.of(entity));
+        when(lookup.findUrlById(URL_ID)).thenReturn(Optional.of(entity.getUrl()));
 
         var result = encoder.encode(URL_TO_ENCODE);
         var expectedValue = "cb";
@@ -102,11 +105,11 @@ class Base62UrlEncoderTest {
         var entity = new Base62Url(URL_TO_ENCODE);
         entity.setId(URL_ID);
 
-        when(repo.findByUrl(URL_TO_ENCODE)).thenReturn(Optional.empty());
+        when(lookup.findIdByUrl(URL_TO_ENCODE)).thenReturn(Optional.empty());
         when(repo.save(any())).thenReturn(entity);
         var anotherEntity = new Base62Url("https://anotherurl.com");
         anotherEntity.setId(URL_ID);
-        when(repo.findById(URL_ID)).thenReturn(Optional.of(anotherEntity));
+        when(lookup.findUrlById(URL_ID)).thenReturn(Optional.of(anotherEntity.getUrl()));
 
         assertThrows(EncodingException.class,
                 () -> encoder.encode(URL_TO_ENCODE),
@@ -118,9 +121,9 @@ class Base62UrlEncoderTest {
         var entity = new Base62Url(URL_TO_ENCODE);
         entity.setId(URL_ID);
 
-        when(repo.findByUrl(URL_TO_ENCODE)).thenReturn(Optional.empty());
+        when(lookup.findIdByUrl(URL_TO_ENCODE)).thenReturn(Optional.empty());
         when(repo.save(any())).thenReturn(entity);
-        when(repo.findById(URL_ID)).thenReturn(Optional.empty());
+        when(lookup.findUrlById(URL_ID)).thenReturn(Optional.empty());
 
         assertThrows(EncodingException.class,
                 () -> encoder.encode(URL_TO_ENCODE),
@@ -136,7 +139,7 @@ class Base62UrlEncoderTest {
         var entity = new Base62Url(URN_TO_DECODE);
         entity.setId(URL_ID);
 
-        when(repo.findById(URL_ID)).thenReturn(Optional.of(entity));
+        when(lookup.findUrlById(URL_ID)).thenReturn(Optional.of(entity.getUrl()));
 
         var result = encoder.decode("cb");
 
@@ -146,7 +149,7 @@ class Base62UrlEncoderTest {
 
     @Test
     void decode_shouldReturnEmptyWhenNotFound() {
-        when(repo.findById(anyLong())).thenReturn(Optional.empty());
+        when(lookup.findUrlById(anyLong())).thenReturn(Optional.empty());
 
         var result = encoder.decode("cb");
 
@@ -168,8 +171,8 @@ class Base62UrlEncoderTest {
         saved.setId(URL_ID);
 
         when(repo.save(any())).thenReturn(saved);
-        when(repo.findById(saved.getId()))
-                .thenReturn(Optional.of(saved));
+        when(lookup.findUrlById(saved.getId()))
+                .thenReturn(Optional.of(saved.getUrl()));
 
         var encoded = encoder.encode(URN_TO_DECODE);
         assertNotNull(encoded);
@@ -4,25 +4,29 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.neaturl.service.repository.hashedurl.HashedUrl;
+import org.neaturl.service.repository.hashedurl.HashedUrlLookup;
 import org.neaturl.service.repository.hashedurl.HashedUrlRepository;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.util.Optional;
-import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class HashUrlEncoderTest {
 
+    private static final double MAX_FILL_RATIO = 0.01;
+
     private HashedUrlRepository repo;
-    private Random random;
+    private HashedUrlLookup lookup;
     private HashUrlEncoder encoder;
 
     @BeforeEach
     void setup() {
         repo = mock(HashedUrlRepository.class);
-        random = mock(Random.class);
-        encoder = new HashUrlEncoder(repo, random);
+        lookup = mock(HashedUrlLookup.class);
+        encoder = new HashUrlEncoder(repo, lookup, HashAlgorithm.MURMUR3, HashUrlEncoder.MIN_HASH_LENGTH,
+                MAX_FILL_RATIO);
     }
 
     // ------------------------------------------------------------
@@ -31,7 +35,7 @@ class HashUrlEncoderTest {
 
     @Test
     void encode_shouldCreate8CharHash() {
-        when(repo.findById(anyString())).thenReturn(Optional.empty());
+        when(lookup.findUrlById(anyString())).thenReturn(Optional.empty());
         var url = "https://example.com";
 
         String hash = encoder.encode(url);
@@ -43,34 +47,79 @@ class HashUrlEncoderTest {
 
     @Test
     void encode_shouldCheckForExistingHash() {
-        when(repo.findById(anyString()))
+        when(lookup.findUrlById(anyString()))
                 .thenReturn(Optional.empty());
 
         encoder.encode("https://unit.test");
 
-        verify(repo, atLeastOnce()).findById(anyString());
+        verify(lookup, atLeastOnce()).findUrlById(anyString());
     }
 
     @Test
     void encode_shouldHandleCollision() {
         // Première tentative : collision
-        when(repo.findById(anyString()))
-                .thenReturn(Optional.of(new HashedUrl("abcdef12", "old")))
+        when(lookup.findUrlById(anyString()))
+                .thenReturn(Optional.of("old"))
                 .thenReturn(Optional.empty());
 
-        when(random.nextInt(anyInt())).thenReturn(5); // simulate deterministic random char
-
         String hash = encoder.encode("https://collision.test");
 
         assertNotNull(hash);
         assertEquals(8, hash.length());
-        verify(repo, times(2)).findById(anyString());
+        verify(lookup, times(2)).findUrlById(anyString());
         verify(repo).save(any(HashedUrl.class));
     }
 
+    @Test
+    void encode_shouldReturnExistingHashForSameUrl() {
+        var url = "https://same.test";
+        when(lookup.findUrlById(anyString())).thenReturn(Optional.empty());
+        String hash = encoder.encode(url);
+
+        when(lookup.findUrlById(hash)).thenReturn(Optional.of(url));
+        for (int i = 0; i < HashUrlEncoder.MAX_HASH_RETRIES + 2; i++) {
+            assertEquals(hash, encoder.encode(url));
+        }
+
+        verify(repo, times(1)).save(any(HashedUrl.class));
+    }
+
+    @Test
+    void encode_shouldRetryWhenHashIsStoredConcurrently() {
+        when(lookup.findUrlById(anyString()))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of("https://other.test"))
+                .thenReturn(Optional.empty());
+        when(repo.save(any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        String hash = encoder.encode("https://race.test");
+
+        var captor = ArgumentCaptor.forClass(HashedUrl.class);
+        verify(repo, times(2)).save(captor.capture());
+        assertNotEquals(captor.getAllValues().get(0).getId(), hash);
+        assertEquals(captor.getAllValues().get(1).getId(), hash);
+    }
+
+    @Test
+    void encode_shouldReturnHashStoredConcurrentlyForSameUrl() {
+        var url = "https://race.test";
+        when(lookup.findUrlById(anyString()))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(url));
+        when(repo.save(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        String hash = encoder.encode(url);
+
+        var captor = ArgumentCaptor.forClass(HashedUrl.class);
+        verify(repo, times(1)).save(captor.capture());
+        assertEquals(captor.getValue().getId(), hash);
+    }
+
     @Test
     void encode_shouldSaveEntityWithCorrectValues() {
-        when(repo.findById(anyString())).thenReturn(Optional.empty());
+        when(lookup.findUrlById(anyString())).thenReturn(Optional.empty());
         var url = "https://neaturl.dev";
 
         String hash = encoder.encode(url);
@@ -83,14 +132,103 @@ class HashUrlEncoderTest {
         assertEquals(hash, saved.getId());
     }
 
+    @Test
+    void encode_shouldOnlyUseBase62Characters() {
+        when(lookup.findUrlById(anyString())).thenReturn(Optional.empty());
+
+        String hash = encoder.encode("https://alphabet.test");
+
+        assertTrue(hash.matches("[a-zA-Z0-9]{8}"));
+    }
+
+    @Test
+    void encode_shouldRetryWithDifferentHash() {
+        when(lookup.findUrlById(anyString()))
+                .thenReturn(Optional.of("old"))
+                .thenReturn(Optional.empty());
+
+        encoder.encode("https://collision.test");
+
+        var captor = ArgumentCaptor.forClass(String.class);
+        verify(lookup, times(2)).findUrlById(captor.capture());
+        assertNotEquals(captor.getAllValues().get(0), captor.getAllValues().get(1));
+    }
+
+    @Test
+    void encode_shouldFailWhenMaxRetriesReached() {
+        when(lookup.findUrlById(anyString())).thenReturn(Optional.of("old"));
+
+        assertThrows(IllegalStateException.class, () -> encoder.encode("https://full.test"));
+        verify(lookup, times(HashUrlEncoder.MAX_HASH_RETRIES + 1)).findUrlById(anyString());
+        verify(repo, never()).save(any());
+    }
+
+    @Test
+    void encode_shouldGrowHashLengthWhenFillRatioIsCrossed() {
+        var capacity = Math.pow(62, HashUrlEncoder.MIN_HASH_LENGTH);
+        when(repo.count()).thenReturn((long) (capacity * MAX_FILL_RATIO));
+        when(lookup.findUrlById(anyString())).thenReturn(Optional.empty());
+        encoder.refreshUrlCount();
+
+        String hash = encoder.encode("https://growth.test");
+
+        assertEquals(HashUrlEncoder.MIN_HASH_LENGTH + 1, hash.length());
+    }
+
+    @Test
+    void encode_shouldNotExceedMaxHashLength() {
+        when(repo.count()).thenReturn(Long.MAX_VALUE - 1);
+        when(lookup.findUrlById(anyString())).thenReturn(Optional.empty());
+        encoder.refreshUrlCount();
+
+        String hash = encoder.encode("https://max.test");
+
+        assertEquals(HashUrlEncoder.MAX_HASH_LENGTH, hash.length());
+    }
+
+    @Test
+    void encode_shouldNotReadUrlCount() {
+        when(lookup.findUrlById(anyString())).thenReturn(Optional.empty());
+
+        for (int i = 0; i < 10; i++) {
+            encoder.encode("https://count.test/" + i);
+        }
+
+        verify(repo, never()).count();
+    }
+
+    @Test
+    void encode_shouldAddEncodedUrlsToRefreshedCount() {
+        var capacity = Math.pow(62, HashUrlEncoder.MIN_HASH_LENGTH);
+        when(repo.count()).thenReturn((long) (capacity * MAX_FILL_RATIO) - 1);
+        when(lookup.findUrlById(anyString())).thenReturn(Optional.empty());
+        encoder.refreshUrlCount();
+
+        // The first encoding fills the table up to the ratio, the next one crosses it.
+        assertEquals(HashUrlEncoder.MIN_HASH_LENGTH, encoder.encode("https://local.test/1").length());
+        assertEquals(HashUrlEncoder.MIN_HASH_LENGTH + 1, encoder.encode("https://local.test/2").length());
+        verify(repo, times(1)).count();
+    }
+
+    @Test
+    void encode_shouldSupportSha256() {
+        encoder = new HashUrlEncoder(repo, lookup, HashAlgorithm.SHA256, HashUrlEncoder.MIN_HASH_LENGTH,
+                MAX_FILL_RATIO);
+        when(lookup.findUrlById(anyString())).thenReturn(Optional.empty());
+
+        String hash = encoder.encode("https://sha.test");
+
+        assertTrue(hash.matches("[a-zA-Z0-9]{8}"));
+    }
+
     // ------------------------------------------------------------
     // DECODE
     // ------------------------------------------------------------
 
     @Test
     void decode_shouldReturnOriginalUrl() {
-        when(repo.findById("abcdef12"))
-                .thenReturn(Optional.of(new HashedUrl("abcdef12", "https://found.test")));
+        when(lookup.findUrlById("abcdef12"))
+                .thenReturn(Optional.of("https://found.test"));
 
         Optional<String> result = encoder.decode("abcdef12");
 
@@ -100,7 +238,7 @@ class HashUrlEncoderTest {
 
     @Test
     void decode_shouldReturnEmptyWhenNotFound() {
-        when(repo.findById("notfound")).thenReturn(Optional.empty());
+        when(lookup.findUrlById("notfound")).thenReturn(Optional.empty());
 
         Optional<String> result = encoder.decode("notfound");
 
@@ -113,13 +251,13 @@ class HashUrlEncoderTest {
 
     @Test
     void encodeDecode_shouldBeConsistent() {
-        when(repo.findById(anyString()))
+        when(lookup.findUrlById(anyString()))
                 .thenReturn(Optional.empty());
 
         String hash = encoder.encode("https://neaturl.com/test");
 
-        when(repo.findById(hash))
-                .thenReturn(Optional.of(new HashedUrl(hash, "https://neaturl.com/test")));
+        when(lookup.findUrlById(hash))
+                .thenReturn(Optional.of("https://neaturl.com/test"));
 
         Optional<String> decoded = encoder.decode(hash);
 
@@ -0,0 +1,89 @@
+package org.neaturl.service.repository;
+
+import org.junit.jupiter.api.Test;
+import org.neaturl.service.repository.base62.Base62Url;
+import org.neaturl.service.repository.base62.Base62UrlLookup;
+import org.neaturl.service.repository.base62.Base62UrlRepository;
+import org.neaturl.service.repository.hashedurl.HashedUrl;
+import org.neaturl.service.repository.hashedurl.HashedUrlLookup;
+import org.neaturl.service.repository.hashedurl.HashedUrlRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the JDBC lookups against the schema generated from the entities.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "neaturl.datasource.driver-class-name=org.h2.Driver",
+        "neaturl.datasource.url=jdbc:h2:mem:lookup;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "neaturl.datasource.username=sa",
+        "neaturl.datasource.password=",
+        "logging.level.org.neaturl=INFO"
+})
+class UrlLookupTest {
+
+    @Autowired
+    private Base62UrlRepository base62Repository;
+    @Autowired
+    private Base62UrlLookup base62Lookup;
+    @Autowired
+    private HashedUrlRepository hashedRepository;
+    @Autowired
+    private HashedUrlLookup hashedLookup;
+
+    // ------------------------------------------------------
+    // BASE62
+    // ------------------------------------------------------
+
+    @Test
+    void base62FindUrlById_shouldReturnSavedUrl() {
+        var saved = base62Repository.save(new Base62Url("https://lookup.test/id"));
+
+        assertEquals(Optional.of("https://lookup.test/id"), base62Lookup.findUrlById(saved.getId()));
+    }
+
+    @Test
+    void base62FindUrlById_shouldReturnEmptyWhenNotFound() {
+        assertTrue(base62Lookup.findUrlById(-1L).isEmpty());
+    }
+
+    @Test
+    void base62FindIdByUrl_shouldReturnSavedId() {
+        var saved = base62Repository.save(new Base62Url("https://lookup.test/url"));
+
+        assertEquals(Optional.of(saved.getId()), base62Lookup.findIdByUrl("https://lookup.test/url"));
+    }
+
+    @Test
+    void base62FindIdByUrl_shouldReturnEmptyWhenNotFound() {
+        assertTrue(base62Lookup.findIdByUrl("https://lookup.test/unknown").isEmpty());
+    }
+
+    @Test
+    void base62FindIdByUrl_shouldReturnFirstIdWhenUrlIsDuplicated() {
+        var first = base62Repository.save(new Base62Url("https://lookup.test/duplicate"));
+        base62Repository.save(new Base62Url("https://lookup.test/duplicate"));
+
+        assertEquals(Optional.of(first.getId()), base62Lookup.findIdByUrl("https://lookup.test/duplicate"));
+    }
+
+    // ------------------------------------------------------
+    // HASHED URL
+    // ------------------------------------------------------
+
+    @Test
+    void hashedFindUrlById_shouldReturnSavedUrl() {
+        hashedRepository.save(new HashedUrl("abcdEF12", "https://lookup.test/hash"));
+
+        assertEquals(Optional.of("https://lookup.test/hash"), hashedLookup.findUrlById("abcdEF12"));
+    }
+
+    @Test
+    void hashedFindUrlById_shouldReturnEmptyWhenNotFound() {
+        assertTrue(hashedLookup.findUrlById("notfound").isEmpty());
+    }
+}
@@ -0,0 +1,32 @@
+package org.neaturl.service.repository.hashedurl;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "neaturl.datasource.driver-class-name=org.h2.Driver",
+        "neaturl.datasource.url=jdbc:h2:mem:lookup;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "neaturl.datasource.username=sa",
+        "neaturl.datasource.password=",
+        "logging.level.org.neaturl=INFO"
+})
+class HashedUrlRepositoryTest {
+
+    @Autowired
+    private HashedUrlRepository repository;
+    @Autowired
+    private HashedUrlLookup lookup;
+
+    @Test
+    void save_shouldRejectExistingHash() {
+        repository.save(new HashedUrl("dupHash1", "https://first.test"));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> repository.save(new HashedUrl("dupHash1", "https://second.test")));
+        assertEquals("https://first.test", lookup.findUrlById("dupHash1").orElseThrow());
+    }
+}